@@ -0,0 +1,72 @@
+package com.example.demo.config;
+
+import com.example.demo.controller.UserReactiveHandler;
+import com.example.demo.repository.UserReactiveRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+
+/**
+ * Reactive Configuration - non-blocking variant of the user read API
+ * R2DBC access to the same H2 database and functional WebFlux routes on a separate Reactor Netty server
+ */
+@Configuration
+public class ReactiveConfig {
+
+    /**
+     * Pooled R2DBC ConnectionFactory for the in-memory database shared with the JPA DataSource
+     * Sized independently of the Hikari pool, which only serves the blocking stack
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionPool r2dbcConnectionFactory(
+            @Value("${reactive.r2dbc.url:r2dbc:h2:mem:///testdb?options=DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE}") String url,
+            @Value("${reactive.r2dbc.pool.initial-size:2}") int initialSize,
+            @Value("${reactive.r2dbc.pool.max-size:10}") int maxSize) {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, "sa")
+                .option(ConnectionFactoryOptions.PASSWORD, "")
+                .build();
+        ConnectionFactory connectionFactory = ConnectionFactories.get(options);
+        return new ConnectionPool(ConnectionPoolConfiguration.builder(connectionFactory)
+                .initialSize(initialSize)
+                .maxSize(maxSize)
+                .build());
+    }
+
+    @Bean
+    public DatabaseClient databaseClient(ConnectionFactory r2dbcConnectionFactory) {
+        return DatabaseClient.create(r2dbcConnectionFactory);
+    }
+
+    /**
+     * Reactor Netty server hosting the functional routes; disabled unless reactive.enabled=true
+     */
+    @Bean
+    public ReactiveServer reactiveServer(UserReactiveRepository userReactiveRepository,
+                                         ObjectMapper mapper,
+                                         @Value("${reactive.enabled:false}") boolean enabled,
+                                         @Value("${reactive.port:8081}") int port,
+                                         @Value("${reactive.event-loop-threads:4}") int eventLoopThreads) {
+        HandlerStrategies strategies = HandlerStrategies.builder()
+                .codecs(configurer -> {
+                    configurer.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(mapper));
+                    configurer.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(mapper));
+                })
+                .build();
+
+        UserReactiveHandler handler = new UserReactiveHandler(userReactiveRepository);
+        return new ReactiveServer(RouterFunctions.toHttpHandler(handler.routes(), strategies),
+                enabled, port, eventLoopThreads);
+    }
+}
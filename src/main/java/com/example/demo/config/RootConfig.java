@@ -1,17 +1,25 @@
 package com.example.demo.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.validator.messageinterpolation.ParameterMessageInterpolator;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.FilterType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.orm.jpa.JpaTransactionManager;
 import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
 import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.stereotype.Controller;
 import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
 
 import jakarta.persistence.EntityManagerFactory;
 import javax.sql.DataSource;
@@ -23,10 +31,18 @@ import java.util.Properties;
  */
 @Configuration
 @EnableTransactionManagement
+@EnableScheduling
 @ComponentScan(basePackages = "com.example.demo", 
                excludeFilters = @ComponentScan.Filter(type = FilterType.ANNOTATION, value = Controller.class))
 public class RootConfig {
 
+    @Value("${db.pool.maximum-size:10}")
+    private int maximumPoolSize;
+
+    // Defaults to a full pool, so idle timeouts never shrink it below what startup opened
+    @Value("${db.pool.minimum-idle:${db.pool.maximum-size:10}}")
+    private int minimumIdle;
+
     /**
      * H2 DataSource Configuration
      */
@@ -37,13 +53,44 @@ public class RootConfig {
         config.setJdbcUrl("jdbc:h2:mem:testdb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE");
         config.setUsername("sa");
         config.setPassword("");
-        config.setMaximumPoolSize(10);
-        config.setMinimumIdle(2);
+        config.setMaximumPoolSize(maximumPoolSize);
+        config.setMinimumIdle(Math.min(minimumIdle, maximumPoolSize));
         config.setConnectionTimeout(30000);
         
         return new HikariDataSource(config);
     }
 
+    /**
+     * JdbcTemplate for set-based SQL that bypasses the persistence context
+     */
+    @Bean
+    public JdbcTemplate jdbcTemplate() {
+        return new JdbcTemplate(dataSource());
+    }
+
+    /**
+     * Shared Bean Validation Validator, built once for the service layer and the import pipeline
+     * Constraint messages are plain text, so parameter-only interpolation skips the EL engine
+     */
+    @Bean
+    public LocalValidatorFactoryBean validator() {
+        LocalValidatorFactoryBean validator = new LocalValidatorFactoryBean();
+        validator.setMessageInterpolator(new ParameterMessageInterpolator());
+        return validator;
+    }
+
+    /**
+     * Custom ObjectMapper with JSR310 support for JSON serialization
+     * Lives in the root context so MVC and the startup warm-up share its serializer caches
+     */
+    @Bean
+    public ObjectMapper objectMapper() {
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.registerModule(new JavaTimeModule());
+        mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        return mapper;
+    }
+
     /**
      * JPA EntityManagerFactory Configuration
      */
@@ -64,6 +111,10 @@ public class RootConfig {
         jpaProperties.put("hibernate.hbm2ddl.auto", "create-drop");
         jpaProperties.put("hibernate.format_sql", "true");
         jpaProperties.put("hibernate.use_sql_comments", "true");
+        // Users are validated once on the way in (UserService, import pipeline); skip revalidation at persist/update
+        jpaProperties.put("jakarta.persistence.validation.mode", "none");
+        // Named queries are parsed and checked while the EntityManagerFactory is built; a broken one fails startup
+        jpaProperties.put("hibernate.query.startup_check", "true");
         em.setJpaProperties(jpaProperties);
         
         return em;
@@ -7,6 +7,7 @@ import org.springframework.web.filter.CharacterEncodingFilter;
 import org.springframework.web.servlet.DispatcherServlet;
 
 import jakarta.servlet.FilterRegistration;
+import jakarta.servlet.MultipartConfigElement;
 import jakarta.servlet.ServletContext;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.ServletRegistration;
@@ -37,6 +38,9 @@ public class WebAppInitializer implements WebApplicationInitializer {
         dispatcher.setLoadOnStartup(1);
         dispatcher.addMapping("/");
         
+        // Enable multipart uploads for CSV imports; parts are spooled to disk above 1 MB
+        dispatcher.setMultipartConfig(new MultipartConfigElement("", -1L, -1L, 1024 * 1024));
+        
         // Add Character Encoding Filter
         FilterRegistration.Dynamic encodingFilter = servletContext.addFilter("CharacterEncodingFilter", 
                 new CharacterEncodingFilter());
@@ -1,13 +1,15 @@
 package com.example.demo.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.validation.Validator;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+import org.springframework.web.multipart.MultipartResolver;
+import org.springframework.web.multipart.support.StandardServletMultipartResolver;
 import org.springframework.web.servlet.ViewResolver;
 import org.springframework.web.servlet.config.annotation.DefaultServletHandlerConfigurer;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
@@ -26,24 +28,29 @@ import java.util.List;
 @ComponentScan(basePackages = {"com.example.demo.controller"})
 public class WebConfig implements WebMvcConfigurer {
 
+    private final LocalValidatorFactoryBean validator;
+    private final ObjectMapper objectMapper;
+
+    public WebConfig(LocalValidatorFactoryBean validator, ObjectMapper objectMapper) {
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+    }
+
     /**
-     * Custom ObjectMapper with JSR310 support for JSON serialization
+     * Reuse the root context's Validator instead of letting MVC build a second one
      */
-    @Bean
-    public ObjectMapper objectMapper() {
-        ObjectMapper mapper = new ObjectMapper();
-        mapper.registerModule(new JavaTimeModule());
-        mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
-        return mapper;
+    @Override
+    public Validator getValidator() {
+        return validator;
     }
 
     /**
-     * Configure message converters for JSON handling
+     * Configure message converters for JSON handling, using the root context's ObjectMapper
      */
     @Override
     public void configureMessageConverters(List<HttpMessageConverter<?>> converters) {
         MappingJackson2HttpMessageConverter jsonConverter = new MappingJackson2HttpMessageConverter();
-        jsonConverter.setObjectMapper(objectMapper());
+        jsonConverter.setObjectMapper(objectMapper);
         converters.add(jsonConverter);
     }
 
@@ -64,6 +71,14 @@ public class WebConfig implements WebMvcConfigurer {
         configurer.enable();
     }
 
+    /**
+     * Multipart resolver backed by the Servlet container, used for CSV uploads
+     */
+    @Bean
+    public MultipartResolver multipartResolver() {
+        return new StandardServletMultipartResolver();
+    }
+
     /**
      * View resolver for JSP views (optional)
      */
@@ -1,13 +1,26 @@
 package com.example.demo.controller;
 
+import com.example.demo.config.StartupWarmup;
 import com.example.demo.entity.User;
+import com.example.demo.service.BulkUserFilter;
+import com.example.demo.service.BulkUserResult;
+import com.example.demo.service.UserImportJob;
+import com.example.demo.service.UserImportService;
 import com.example.demo.service.UserService;
+import com.example.demo.service.UserStatsRollup;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
-import jakarta.validation.Valid;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -18,10 +31,14 @@ import java.util.Optional;
 public class UserController {
     
     private final UserService userService;
+    private final UserImportService userImportService;
+    private final StartupWarmup startupWarmup;
     
     @Autowired
-    public UserController(UserService userService) {
+    public UserController(UserService userService, UserImportService userImportService, StartupWarmup startupWarmup) {
         this.userService = userService;
+        this.userImportService = userImportService;
+        this.startupWarmup = startupWarmup;
     }
     
     // Health check endpoint
@@ -34,9 +51,19 @@ public class UserController {
         return ResponseEntity.ok(response);
     }
     
+    // Readiness check: 503 until the startup warm-up has finished
+    @GetMapping("/ready")
+    public ResponseEntity<Map<String, Object>> ready() {
+        Map<String, Object> response = startupWarmup.getStatus();
+        if (!startupWarmup.isReady()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
+        }
+        return ResponseEntity.ok(response);
+    }
+    
     // Create a new user
     @PostMapping
-    public ResponseEntity<Map<String, Object>> createUser(@Valid @RequestBody User user) {
+    public ResponseEntity<Map<String, Object>> createUser(@RequestBody User user) {
         Map<String, Object> response = new HashMap<>();
         try {
             User createdUser = userService.createUser(user);
@@ -110,7 +137,7 @@ public class UserController {
     // Update user
     @PutMapping("/{id}")
     public ResponseEntity<Map<String, Object>> updateUser(@PathVariable Long id, 
-                                                         @Valid @RequestBody User userDetails) {
+                                                         @RequestBody User userDetails) {
         Map<String, Object> response = new HashMap<>();
         try {
             User updatedUser = userService.updateUser(id, userDetails);
@@ -173,6 +200,57 @@ public class UserController {
         }
     }
     
+    // Deactivate all users matching a filter or id list
+    @PostMapping("/bulk/deactivate")
+    public ResponseEntity<Map<String, Object>> bulkDeactivate(@RequestBody BulkUserFilter filter) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            BulkUserResult result = userService.bulkDeactivate(filter);
+            response.putAll(result.toMap());
+            response.put("success", true);
+            response.put("message", result.getAffectedRows() + " users deactivated");
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+    
+    // Activate all users matching a filter or id list
+    @PostMapping("/bulk/activate")
+    public ResponseEntity<Map<String, Object>> bulkActivate(@RequestBody BulkUserFilter filter) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            BulkUserResult result = userService.bulkActivate(filter);
+            response.putAll(result.toMap());
+            response.put("success", true);
+            response.put("message", result.getAffectedRows() + " users activated");
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+    
+    // Delete all users matching a filter or id list
+    @PostMapping("/bulk/delete")
+    public ResponseEntity<Map<String, Object>> bulkDelete(@RequestBody BulkUserFilter filter) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            BulkUserResult result = userService.bulkDelete(filter);
+            response.putAll(result.toMap());
+            response.put("success", true);
+            response.put("message", result.getAffectedRows() + " users deleted");
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+    
     // Check if username exists
     @GetMapping("/exists/username/{username}")
     public ResponseEntity<Map<String, Object>> checkUsernameExists(@PathVariable String username) {
@@ -201,4 +279,123 @@ public class UserController {
         response.put("count", count);
         return ResponseEntity.ok(response);
     }
+    
+    // Get signups and active/inactive counts per hour or day of creation
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getUserStats(@RequestParam(defaultValue = "day") String bucket,
+                                                            @RequestParam(required = false) String from,
+                                                            @RequestParam(required = false) String to) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            UserStatsRollup.Bucket bucketSize;
+            if ("day".equalsIgnoreCase(bucket)) {
+                bucketSize = UserStatsRollup.Bucket.DAY;
+            } else if ("hour".equalsIgnoreCase(bucket)) {
+                bucketSize = UserStatsRollup.Bucket.HOUR;
+            } else {
+                throw new IllegalArgumentException("bucket must be 'day' or 'hour'");
+            }
+            response.putAll(userService.getUserStats(bucketSize, parseDateTime(from), parseDateTime(to)));
+            response.put("success", true);
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+    
+    // Get in-process user directory statistics
+    @GetMapping("/directory/stats")
+    public ResponseEntity<Map<String, Object>> getDirectoryStats() {
+        return ResponseEntity.ok(userService.getDirectoryStats());
+    }
+    
+    // Get hot/cold archive statistics
+    @GetMapping("/archive/stats")
+    public ResponseEntity<Map<String, Object>> getArchiveStats() {
+        return ResponseEntity.ok(userService.getArchiveStats());
+    }
+    
+    // Get request coalescing and batching statistics
+    @GetMapping("/loader/stats")
+    public ResponseEntity<Map<String, Object>> getLoaderStats() {
+        return ResponseEntity.ok(userService.getLoaderStats());
+    }
+    
+    // Import users from an uploaded CSV file or a file in the server-side import directory
+    @PostMapping("/import")
+    public ResponseEntity<Map<String, Object>> importUsers(@RequestParam(value = "file", required = false) MultipartFile file,
+                                                           @RequestParam(value = "path", required = false) String path) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            UserImportJob job;
+            if (file != null && !file.isEmpty()) {
+                try (InputStream content = file.getInputStream()) {
+                    job = userImportService.submitUpload(content, file.getOriginalFilename());
+                }
+            } else if (path != null && !path.isBlank()) {
+                job = userImportService.submitServerFile(path);
+            } else {
+                throw new IllegalArgumentException("Either a 'file' upload or a 'path' parameter is required");
+            }
+            response.put("success", true);
+            response.put("message", "User import started");
+            response.put("job", job.toMap());
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+        } catch (IllegalArgumentException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        } catch (IOException e) {
+            response.put("success", false);
+            response.put("message", "Could not read uploaded file: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+    
+    // Get import job progress and status
+    @GetMapping("/import/{jobId}")
+    public ResponseEntity<Map<String, Object>> getImportStatus(@PathVariable long jobId) {
+        Optional<UserImportJob> job = userImportService.getJob(jobId);
+        if (job.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("job", job.get().toMap());
+        return ResponseEntity.ok(response);
+    }
+    
+    // Download the rejected rows of an import job as CSV
+    @GetMapping("/import/{jobId}/rejected")
+    public void getRejectedRows(@PathVariable long jobId, HttpServletResponse response) throws IOException {
+        if (userImportService.getJob(jobId).isEmpty()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        response.setContentType("text/csv;charset=UTF-8");
+        response.setHeader("Content-Disposition", "attachment; filename=\"import-" + jobId + "-rejected.csv\"");
+        Writer writer = response.getWriter();
+        userImportService.writeRejectedRows(jobId, writer);
+        writer.flush();
+    }
+    
+    // Export all users as CSV
+    @GetMapping("/export.csv")
+    public void exportUsers(HttpServletResponse response) throws IOException {
+        response.setContentType("text/csv;charset=UTF-8");
+        response.setHeader("Content-Disposition", "attachment; filename=\"users.csv\"");
+        Writer writer = response.getWriter();
+        userImportService.exportUsers(writer);
+        writer.flush();
+    }
+    
+    // Accepts an ISO date (start of day) or an ISO date-time
+    private static LocalDateTime parseDateTime(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        return value.length() == 10 ? LocalDate.parse(value).atStartOfDay() : LocalDateTime.parse(value);
+    }
 }
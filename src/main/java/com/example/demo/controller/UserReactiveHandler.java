@@ -0,0 +1,94 @@
+package com.example.demo.controller;
+
+import com.example.demo.entity.User;
+import com.example.demo.repository.UserReactiveRepository;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Functional WebFlux routes mirroring the read endpoints of {@link UserController}.
+ * Served by the reactive server, not by the DispatcherServlet.
+ */
+public class UserReactiveHandler {
+    
+    private final UserReactiveRepository userReactiveRepository;
+    
+    public UserReactiveHandler(UserReactiveRepository userReactiveRepository) {
+        this.userReactiveRepository = userReactiveRepository;
+    }
+    
+    public RouterFunction<ServerResponse> routes() {
+        return RouterFunctions.route()
+            .GET("/api/users", this::streamUsers)
+            .GET("/api/users/username/{username}", this::getUserByUsername)
+            .GET("/api/users/exists/username/{username}", this::checkUsernameExists)
+            .GET("/api/users/exists/email/{email}", this::checkEmailExists)
+            .GET("/api/users/{id}", this::getUserById)
+            .build();
+    }
+    
+    // Stream all users as newline-delimited JSON, honouring client back-pressure
+    public Mono<ServerResponse> streamUsers(ServerRequest request) {
+        return ServerResponse.ok()
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .body(userReactiveRepository.findAll(), User.class);
+    }
+    
+    // Get user by ID
+    public Mono<ServerResponse> getUserById(ServerRequest request) {
+        Long id;
+        try {
+            id = Long.valueOf(request.pathVariable("id"));
+        } catch (NumberFormatException e) {
+            return ServerResponse.badRequest().build();
+        }
+        return userResponse(userReactiveRepository.findById(id));
+    }
+    
+    // Get user by username
+    public Mono<ServerResponse> getUserByUsername(ServerRequest request) {
+        return userResponse(userReactiveRepository.findByUsername(request.pathVariable("username")));
+    }
+    
+    // Check if username exists
+    public Mono<ServerResponse> checkUsernameExists(ServerRequest request) {
+        String username = request.pathVariable("username");
+        return userReactiveRepository.existsByUsername(username)
+            .flatMap(exists -> {
+                Map<String, Object> response = new HashMap<>();
+                response.put("username", username);
+                response.put("exists", exists);
+                return ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(response);
+            });
+    }
+    
+    // Check if email exists
+    public Mono<ServerResponse> checkEmailExists(ServerRequest request) {
+        String email = request.pathVariable("email");
+        return userReactiveRepository.existsByEmail(email)
+            .flatMap(exists -> {
+                Map<String, Object> response = new HashMap<>();
+                response.put("email", email);
+                response.put("exists", exists);
+                return ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(response);
+            });
+    }
+    
+    private Mono<ServerResponse> userResponse(Mono<User> user) {
+        return user
+            .flatMap(found -> {
+                Map<String, Object> response = new HashMap<>();
+                response.put("success", true);
+                response.put("user", found);
+                return ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(response);
+            })
+            .switchIfEmpty(ServerResponse.notFound().build());
+    }
+}
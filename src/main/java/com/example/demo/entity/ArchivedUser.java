@@ -0,0 +1,86 @@
+package com.example.demo.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Cold copy of an inactive {@link User}, kept in {@code users_archive} so that the hot
+ * {@code users} table and its unique indexes only carry users that may be active.
+ * Rows keep their original id and are moved in and out with set-based SQL.
+ */
+@Entity
+@Immutable
+@Table(name = "users_archive")
+@NamedQueries({
+    @NamedQuery(name = "ArchivedUser.findByUsername",
+        query = "SELECT a FROM ArchivedUser a WHERE a.username = :username"),
+    @NamedQuery(name = "ArchivedUser.findByEmail",
+        query = "SELECT a FROM ArchivedUser a WHERE a.email = :email"),
+    @NamedQuery(name = "ArchivedUser.findAllById",
+        query = "SELECT a FROM ArchivedUser a WHERE a.id IN :ids"),
+    @NamedQuery(name = "ArchivedUser.findAllByUsername",
+        query = "SELECT a FROM ArchivedUser a WHERE a.username IN :usernames"),
+    @NamedQuery(name = "ArchivedUser.findAllByEmail",
+        query = "SELECT a FROM ArchivedUser a WHERE a.email IN :emails"),
+    @NamedQuery(name = "ArchivedUser.count",
+        query = "SELECT COUNT(a) FROM ArchivedUser a")
+})
+public class ArchivedUser {
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false, unique = true, length = 50)
+    private String username;
+
+    @Column(nullable = false, unique = true, length = 100)
+    private String email;
+
+    @Column(name = "first_name", nullable = false, length = 50)
+    private String firstName;
+
+    @Column(name = "last_name", nullable = false, length = 50)
+    private String lastName;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "active")
+    private Boolean active;
+
+    protected ArchivedUser() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * Detached {@link User} view of this row, for read paths that fall back to the archive
+     */
+    public User toUser() {
+        User user = new User(username, email, firstName, lastName);
+        user.setId(id);
+        user.setCreatedAt(createdAt);
+        user.setUpdatedAt(updatedAt);
+        user.setActive(active);
+        return user;
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.demo.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
@@ -9,6 +10,30 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "users")
+@DynamicUpdate
+@NamedQueries({
+    @NamedQuery(name = "User.findByUsername",
+        query = "SELECT u FROM User u WHERE u.username = :username"),
+    @NamedQuery(name = "User.findByEmail",
+        query = "SELECT u FROM User u WHERE u.email = :email"),
+    @NamedQuery(name = "User.findAllById",
+        query = "SELECT u FROM User u WHERE u.id IN :ids"),
+    @NamedQuery(name = "User.findAllByUsername",
+        query = "SELECT u FROM User u WHERE u.username IN :usernames"),
+    @NamedQuery(name = "User.findAllByEmail",
+        query = "SELECT u FROM User u WHERE u.email IN :emails"),
+    @NamedQuery(name = "User.findAll",
+        query = "SELECT u FROM User u ORDER BY u.createdAt DESC"),
+    @NamedQuery(name = "User.findActive",
+        query = "SELECT u FROM User u WHERE u.active = true ORDER BY u.createdAt DESC"),
+    @NamedQuery(name = "User.findIdsToArchive",
+        query = "SELECT u.id FROM User u WHERE u.active = false AND u.updatedAt < :inactiveBefore ORDER BY u.id"),
+    @NamedQuery(name = "User.updateActive",
+        query = "UPDATE User u SET u.active = :active, u.updatedAt = local datetime " +
+                "WHERE u.id IN :ids AND (u.active IS NULL OR u.active <> :active)"),
+    @NamedQuery(name = "User.deleteAllById",
+        query = "DELETE FROM User u WHERE u.id IN :ids")
+})
 public class User {
     
     @Id
@@ -22,6 +47,7 @@ public class User {
     
     @NotBlank(message = "Email is required")
     @Email(message = "Email should be valid")
+    @Size(max = 100, message = "Email must not exceed 100 characters")
     @Column(nullable = false, unique = true, length = 100)
     private String email;
     
@@ -0,0 +1,48 @@
+package com.example.demo.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+/**
+ * Username and email of every user, whether the user lives in {@code users} or {@code users_archive}.
+ * Its unique indexes enforce uniqueness across both tables. Moving a user between them keeps
+ * id, username and email, so its row here stays as it is.
+ */
+@Entity
+@Immutable
+@Table(name = "user_keys")
+@NamedQueries({
+    @NamedQuery(name = "UserKey.existsById",
+        query = "SELECT COUNT(k) FROM UserKey k WHERE k.userId = :id"),
+    @NamedQuery(name = "UserKey.existsByUsername",
+        query = "SELECT COUNT(k) FROM UserKey k WHERE k.username = :username"),
+    @NamedQuery(name = "UserKey.existsByEmail",
+        query = "SELECT COUNT(k) FROM UserKey k WHERE k.email = :email")
+})
+public class UserKey {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(nullable = false, unique = true, length = 50)
+    private String username;
+
+    @Column(nullable = false, unique = true, length = 100)
+    private String email;
+
+    protected UserKey() {
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.demo.repository;
+
+import com.example.demo.entity.User;
+import io.r2dbc.spi.Readable;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+/**
+ * Non-blocking, read-only access to the {@code users} and {@code users_archive} tables over R2DBC.
+ * Rows map onto detached {@link User} instances; the schema is owned by the JPA mapping.
+ */
+@Repository
+public class UserReactiveRepository {
+    
+    private static final String COLUMNS = "id, username, email, first_name, last_name, created_at, updated_at, active";
+    private static final String SELECT_USERS = "SELECT " + COLUMNS + " FROM users";
+    private static final String SELECT_ARCHIVED_USERS = "SELECT " + COLUMNS + " FROM users_archive";
+    
+    private final DatabaseClient databaseClient;
+    
+    public UserReactiveRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+    
+    public Mono<User> findById(Long id) {
+        return databaseClient.sql(SELECT_USERS + " WHERE id = :id")
+            .bind("id", id)
+            .map(UserReactiveRepository::toUser)
+            .one()
+            .switchIfEmpty(Mono.defer(() -> databaseClient.sql(SELECT_ARCHIVED_USERS + " WHERE id = :id")
+                .bind("id", id)
+                .map(UserReactiveRepository::toUser)
+                .one()));
+    }
+    
+    public Mono<User> findByUsername(String username) {
+        return databaseClient.sql(SELECT_USERS + " WHERE username = :username")
+            .bind("username", username)
+            .map(UserReactiveRepository::toUser)
+            .one()
+            .switchIfEmpty(Mono.defer(() -> databaseClient.sql(SELECT_ARCHIVED_USERS + " WHERE username = :username")
+                .bind("username", username)
+                .map(UserReactiveRepository::toUser)
+                .one()));
+    }
+    
+    public Mono<User> findByEmail(String email) {
+        return databaseClient.sql(SELECT_USERS + " WHERE email = :email")
+            .bind("email", email)
+            .map(UserReactiveRepository::toUser)
+            .one()
+            .switchIfEmpty(Mono.defer(() -> databaseClient.sql(SELECT_ARCHIVED_USERS + " WHERE email = :email")
+                .bind("email", email)
+                .map(UserReactiveRepository::toUser)
+                .one()));
+    }
+    
+    /**
+     * Streams all users, hot and archived; rows are fetched as the subscriber requests them
+     */
+    public Flux<User> findAll() {
+        return databaseClient.sql(SELECT_USERS + " UNION ALL " + SELECT_ARCHIVED_USERS + " ORDER BY created_at DESC")
+            .map(UserReactiveRepository::toUser)
+            .all();
+    }
+    
+    public Mono<Boolean> existsByUsername(String username) {
+        return databaseClient.sql("SELECT COUNT(*) FROM user_keys WHERE username = :username")
+            .bind("username", username)
+            .map(row -> row.get(0, Long.class) > 0)
+            .one();
+    }
+    
+    public Mono<Boolean> existsByEmail(String email) {
+        return databaseClient.sql("SELECT COUNT(*) FROM user_keys WHERE email = :email")
+            .bind("email", email)
+            .map(row -> row.get(0, Long.class) > 0)
+            .one();
+    }
+    
+    private static User toUser(Readable row) {
+        User user = new User(
+            row.get("username", String.class),
+            row.get("email", String.class),
+            row.get("first_name", String.class),
+            row.get("last_name", String.class));
+        user.setId(row.get("id", Long.class));
+        user.setCreatedAt(row.get("created_at", LocalDateTime.class));
+        user.setUpdatedAt(row.get("updated_at", LocalDateTime.class));
+        user.setActive(row.get("active", Boolean.class));
+        return user;
+    }
+}
@@ -1,15 +1,34 @@
 package com.example.demo.repository;
 
+import com.example.demo.entity.ArchivedUser;
 import com.example.demo.entity.User;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
 import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.PersistenceException;
 import jakarta.persistence.TypedQuery;
+import org.hibernate.Session;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+/**
+ * Data access for users. Inactive users may live in the {@code users_archive} table;
+ * lookups check the hot {@code users} table first and fall back to the archive,
+ * and existence and uniqueness checks are single lookups in {@code user_keys}, which covers both tables.
+ * Static JPQL lives in named queries on the entities, parsed and validated once at bootstrap.
+ */
 @Repository
 @Transactional
 public class UserRepository {
@@ -20,57 +39,148 @@ public class UserRepository {
     public User save(User user) {
         if (user.getId() == null) {
             entityManager.persist(user);
+            insertKeys(user);
+            return user;
+        } else if (entityManager.contains(user)) {
+            // Managed changes are picked up by dirty tracking at flush; merge would only copy the state onto itself
             return user;
         } else {
             return entityManager.merge(user);
         }
     }
     
+    /**
+     * Archived users are returned as detached copies
+     */
     @Transactional(readOnly = true)
     public Optional<User> findById(Long id) {
         User user = entityManager.find(User.class, id);
+        if (user != null) {
+            return Optional.of(user);
+        }
+        ArchivedUser archivedUser = entityManager.find(ArchivedUser.class, id);
+        return archivedUser == null ? Optional.empty() : Optional.of(archivedUser.toUser());
+    }
+    
+    /**
+     * Managed user from the hot table only, locked for update, for write paths.
+     * The lock orders the write against {@link #archiveAll}: whichever comes second sees the other's result.
+     */
+    public Optional<User> findHotById(Long id) {
+        User user = entityManager.find(User.class, id, LockModeType.PESSIMISTIC_WRITE);
         return Optional.ofNullable(user);
     }
     
     @Transactional(readOnly = true)
     public Optional<User> findByUsername(String username) {
-        TypedQuery<User> query = entityManager.createQuery(
-            "SELECT u FROM User u WHERE u.username = :username", User.class);
+        TypedQuery<User> query = entityManager.createNamedQuery("User.findByUsername", User.class);
         query.setParameter("username", username);
         
         List<User> users = query.getResultList();
-        return users.isEmpty() ? Optional.empty() : Optional.of(users.get(0));
+        if (!users.isEmpty()) {
+            return Optional.of(users.get(0));
+        }
+        return findArchived("ArchivedUser.findByUsername", "username", username);
     }
     
     @Transactional(readOnly = true)
     public Optional<User> findByEmail(String email) {
-        TypedQuery<User> query = entityManager.createQuery(
-            "SELECT u FROM User u WHERE u.email = :email", User.class);
+        TypedQuery<User> query = entityManager.createNamedQuery("User.findByEmail", User.class);
         query.setParameter("email", email);
         
         List<User> users = query.getResultList();
-        return users.isEmpty() ? Optional.empty() : Optional.of(users.get(0));
+        if (!users.isEmpty()) {
+            return Optional.of(users.get(0));
+        }
+        return findArchived("ArchivedUser.findByEmail", "email", email);
+    }
+    
+    @Transactional(readOnly = true)
+    public List<User> findAllById(Collection<Long> ids) {
+        TypedQuery<User> query = entityManager.createNamedQuery("User.findAllById", User.class);
+        query.setParameter("ids", ids);
+        return withArchived(query.getResultList(), ids, User::getId, "ArchivedUser.findAllById", "ids");
     }
     
+    @Transactional(readOnly = true)
+    public List<User> findAllByUsername(Collection<String> usernames) {
+        TypedQuery<User> query = entityManager.createNamedQuery("User.findAllByUsername", User.class);
+        query.setParameter("usernames", usernames);
+        return withArchived(query.getResultList(), usernames, User::getUsername, "ArchivedUser.findAllByUsername", "usernames");
+    }
+    
+    @Transactional(readOnly = true)
+    public List<User> findAllByEmail(Collection<String> emails) {
+        TypedQuery<User> query = entityManager.createNamedQuery("User.findAllByEmail", User.class);
+        query.setParameter("emails", emails);
+        return withArchived(query.getResultList(), emails, User::getEmail, "ArchivedUser.findAllByEmail", "emails");
+    }
+    
+    /**
+     * Hot and archived users as detached copies, newest first.
+     * Both tables are read in one statement, so a concurrent archive move cannot show a user twice or not at all.
+     */
     @Transactional(readOnly = true)
     public List<User> findAll() {
-        TypedQuery<User> query = entityManager.createQuery(
-            "SELECT u FROM User u ORDER BY u.createdAt DESC", User.class);
-        return query.getResultList();
+        return session().createNativeQuery(
+                "SELECT id, username, email, first_name, last_name, created_at, updated_at, active FROM users " +
+                "UNION ALL " +
+                "SELECT id, username, email, first_name, last_name, created_at, updated_at, active FROM users_archive " +
+                "ORDER BY created_at DESC", Object[].class)
+            .addScalar("id", Long.class)
+            .addScalar("username", String.class)
+            .addScalar("email", String.class)
+            .addScalar("first_name", String.class)
+            .addScalar("last_name", String.class)
+            .addScalar("created_at", LocalDateTime.class)
+            .addScalar("updated_at", LocalDateTime.class)
+            .addScalar("active", Boolean.class)
+            .getResultList()
+            .stream()
+            .map(UserRepository::toUser)
+            .collect(Collectors.toList());
+    }
+    
+    /**
+     * Most recently created users in the hot table
+     */
+    @Transactional(readOnly = true)
+    public List<User> findRecent(int limit) {
+        return entityManager.createNamedQuery("User.findAll", User.class)
+            .setMaxResults(limit)
+            .getResultList();
     }
     
     @Transactional(readOnly = true)
     public List<User> findActiveUsers() {
-        TypedQuery<User> query = entityManager.createQuery(
-            "SELECT u FROM User u WHERE u.active = true ORDER BY u.createdAt DESC", User.class);
+        TypedQuery<User> query = entityManager.createNamedQuery("User.findActive", User.class);
         return query.getResultList();
     }
     
+    /**
+     * User counts grouped by creation hour and active flag, over both tables in one statement:
+     * [year, month, day, hour, active, count]
+     */
+    @Transactional(readOnly = true)
+    public List<Object[]> countByCreatedHour() {
+        return session().createNativeQuery(
+                "SELECT YEAR(created_at), MONTH(created_at), DAY_OF_MONTH(created_at), HOUR(created_at), active, COUNT(*) " +
+                "FROM (SELECT created_at, active FROM users UNION ALL SELECT created_at, active FROM users_archive) " +
+                "GROUP BY YEAR(created_at), MONTH(created_at), DAY_OF_MONTH(created_at), HOUR(created_at), active",
+                Object[].class)
+            .getResultList();
+    }
+    
     @Transactional(readOnly = true)
     public long count() {
-        TypedQuery<Long> query = entityManager.createQuery(
-            "SELECT COUNT(u) FROM User u", Long.class);
-        return query.getSingleResult();
+        return session().createNativeQuery(
+                "SELECT (SELECT COUNT(*) FROM users) + (SELECT COUNT(*) FROM users_archive)", Long.class)
+            .getSingleResult();
+    }
+    
+    @Transactional(readOnly = true)
+    public long countArchived() {
+        return entityManager.createNamedQuery("ArchivedUser.count", Long.class).getSingleResult();
     }
     
     public void delete(User user) {
@@ -82,36 +192,242 @@ public class UserRepository {
                 entityManager.remove(managedUser);
             }
         }
+        deleteKeys(List.of(user.getId()));
     }
     
     public void deleteById(Long id) {
-        User user = entityManager.find(User.class, id);
+        User user = entityManager.find(User.class, id, LockModeType.PESSIMISTIC_WRITE);
         if (user != null) {
             entityManager.remove(user);
+        } else {
+            entityManager.createNativeQuery("DELETE FROM users_archive WHERE id = :id")
+                .setParameter("id", id)
+                .executeUpdate();
         }
+        deleteKeys(List.of(id));
+    }
+    
+    /**
+     * Moves a user's username and email to new values in {@code user_keys}
+     */
+    public void updateKeys(User user) {
+        try {
+            entityManager.createNativeQuery("UPDATE user_keys SET username = :username, email = :email WHERE user_id = :id")
+                .setParameter("username", user.getUsername())
+                .setParameter("email", user.getEmail())
+                .setParameter("id", user.getId())
+                .executeUpdate();
+        } catch (PersistenceException e) {
+            throw duplicateKey(user, e);
+        }
+    }
+    
+    /**
+     * Next chunk of ids matching the bulk criteria, in id order after {@code afterId},
+     * across the hot and archive tables. Null criteria are not applied.
+     */
+    @Transactional(readOnly = true)
+    public List<Long> findIdsMatching(Collection<Long> ids, LocalDateTime createdBefore, String emailDomain,
+                                      long afterId, int limit) {
+        TreeSet<Long> matching = new TreeSet<>(idsMatching("User", ids, createdBefore, emailDomain, afterId, limit));
+        matching.addAll(idsMatching("ArchivedUser", ids, createdBefore, emailDomain, afterId, limit));
+        return matching.stream().limit(limit).collect(Collectors.toList());
+    }
+    
+    /**
+     * Sets the active flag on the given users; activating also moves archived users back to the hot table
+     */
+    public int updateActive(Collection<Long> ids, boolean active) {
+        int updated = entityManager.createNamedQuery("User.updateActive")
+            .setParameter("active", active)
+            .setParameter("ids", ids)
+            .executeUpdate();
+        return active ? updated + restoreAll(ids, true) : updated;
+    }
+    
+    public int deleteAllById(Collection<Long> ids) {
+        int deleted = entityManager.createNamedQuery("User.deleteAllById")
+            .setParameter("ids", ids)
+            .executeUpdate();
+        deleted += entityManager.createNativeQuery("DELETE FROM users_archive WHERE id IN (:ids)")
+            .setParameter("ids", ids)
+            .executeUpdate();
+        deleteKeys(ids);
+        return deleted;
+    }
+    
+    /**
+     * Ids of inactive users in the hot table not updated since {@code inactiveBefore}
+     */
+    @Transactional(readOnly = true)
+    public List<Long> findIdsToArchive(LocalDateTime inactiveBefore, int limit) {
+        return entityManager.createNamedQuery("User.findIdsToArchive", Long.class)
+            .setParameter("inactiveBefore", inactiveBefore)
+            .setMaxResults(limit)
+            .getResultList();
+    }
+    
+    /**
+     * Moves inactive users to the archive table; active users in {@code ids} are left in place.
+     * The inactive rows are locked first and exactly that set is moved, so a concurrent activation
+     * either commits before the lock and keeps its user in place, or waits and then finds it archived.
+     * Clears the persistence context, as managed instances of moved users become stale.
+     */
+    public int archiveAll(Collection<Long> ids) {
+        entityManager.flush();
+        List<Long> locked = session().createNativeQuery(
+            "SELECT id FROM users WHERE id IN (:ids) AND active = FALSE FOR UPDATE", Long.class)
+            .setParameter("ids", ids)
+            .getResultList();
+        int archived = 0;
+        if (!locked.isEmpty()) {
+            archived = entityManager.createNativeQuery(
+                "INSERT INTO users_archive (id, username, email, first_name, last_name, created_at, updated_at, active) " +
+                "SELECT id, username, email, first_name, last_name, created_at, updated_at, FALSE " +
+                "FROM users WHERE id IN (:ids)")
+                .setParameter("ids", locked)
+                .executeUpdate();
+            entityManager.createNativeQuery("DELETE FROM users WHERE id IN (:ids)")
+                .setParameter("ids", locked)
+                .executeUpdate();
+        }
+        entityManager.clear();
+        return archived;
+    }
+    
+    /**
+     * Moves archived users back to the hot table with the given active flag, keeping their ids
+     */
+    public int restoreAll(Collection<Long> ids, boolean active) {
+        entityManager.flush();
+        int restored = entityManager.createNativeQuery(
+            "INSERT INTO users (id, username, email, first_name, last_name, created_at, updated_at, active) " +
+            "SELECT id, username, email, first_name, last_name, created_at, LOCALTIMESTAMP, :active " +
+            "FROM users_archive WHERE id IN (:ids)")
+            .setParameter("active", active)
+            .setParameter("ids", ids)
+            .executeUpdate();
+        if (restored > 0) {
+            entityManager.createNativeQuery("DELETE FROM users_archive WHERE id IN (:ids)")
+                .setParameter("ids", ids)
+                .executeUpdate();
+        }
+        entityManager.clear();
+        return restored;
+    }
+    
+    // The only JPQL built at runtime: its shape depends on which bulk criteria are present
+    private List<Long> idsMatching(String entity, Collection<Long> ids, LocalDateTime createdBefore,
+                                   String emailDomain, long afterId, int limit) {
+        StringBuilder jpql = new StringBuilder("SELECT u.id FROM " + entity + " u WHERE u.id > :afterId");
+        if (ids != null) {
+            jpql.append(" AND u.id IN :ids");
+        }
+        if (createdBefore != null) {
+            jpql.append(" AND u.createdAt < :createdBefore");
+        }
+        if (emailDomain != null) {
+            jpql.append(" AND LOWER(SUBSTRING(u.email, LOCATE('@', u.email) + 1)) = :emailDomain");
+        }
+        jpql.append(" ORDER BY u.id");
+        
+        TypedQuery<Long> query = entityManager.createQuery(jpql.toString(), Long.class);
+        query.setParameter("afterId", afterId);
+        if (ids != null) {
+            query.setParameter("ids", ids);
+        }
+        if (createdBefore != null) {
+            query.setParameter("createdBefore", createdBefore);
+        }
+        if (emailDomain != null) {
+            query.setParameter("emailDomain", emailDomain.toLowerCase());
+        }
+        query.setMaxResults(limit);
+        return query.getResultList();
     }
     
     @Transactional(readOnly = true)
     public boolean existsById(Long id) {
-        TypedQuery<Long> query = entityManager.createQuery(
-            "SELECT COUNT(u) FROM User u WHERE u.id = :id", Long.class);
+        TypedQuery<Long> query = entityManager.createNamedQuery("UserKey.existsById", Long.class);
         query.setParameter("id", id);
         return query.getSingleResult() > 0;
     }
     
     @Transactional(readOnly = true)
     public boolean existsByUsername(String username) {
-        TypedQuery<Long> query = entityManager.createQuery(
-            "SELECT COUNT(u) FROM User u WHERE u.username = :username", Long.class);
+        TypedQuery<Long> query = entityManager.createNamedQuery("UserKey.existsByUsername", Long.class);
         query.setParameter("username", username);
         return query.getSingleResult() > 0;
     }
     
     @Transactional(readOnly = true)
     public boolean existsByEmail(String email) {
-        TypedQuery<Long> query = entityManager.createQuery(
-            "SELECT COUNT(u) FROM User u WHERE u.email = :email", Long.class);
+        TypedQuery<Long> query = entityManager.createNamedQuery("UserKey.existsByEmail", Long.class);
         query.setParameter("email", email);
         return query.getSingleResult() > 0;
     }
+    
+    private void insertKeys(User user) {
+        try {
+            entityManager.createNativeQuery("INSERT INTO user_keys (user_id, username, email) VALUES (:id, :username, :email)")
+                .setParameter("id", user.getId())
+                .setParameter("username", user.getUsername())
+                .setParameter("email", user.getEmail())
+                .executeUpdate();
+        } catch (PersistenceException e) {
+            throw duplicateKey(user, e);
+        }
+    }
+    
+    private void deleteKeys(Collection<Long> ids) {
+        entityManager.createNativeQuery("DELETE FROM user_keys WHERE user_id IN (:ids)")
+            .setParameter("ids", ids)
+            .executeUpdate();
+    }
+    
+    // A unique index violation on user_keys means a concurrent writer took the username or email first
+    private static RuntimeException duplicateKey(User user, PersistenceException e) {
+        if (e instanceof ConstraintViolationException || e.getCause() instanceof ConstraintViolationException) {
+            return new IllegalArgumentException(
+                "Username or email already exists: " + user.getUsername() + ", " + user.getEmail(), e);
+        }
+        return e;
+    }
+    
+    private Session session() {
+        return entityManager.unwrap(Session.class);
+    }
+    
+    private static User toUser(Object[] row) {
+        User user = new User((String) row[1], (String) row[2], (String) row[3], (String) row[4]);
+        user.setId((Long) row[0]);
+        user.setCreatedAt((LocalDateTime) row[5]);
+        user.setUpdatedAt((LocalDateTime) row[6]);
+        user.setActive((Boolean) row[7]);
+        return user;
+    }
+    
+    private Optional<User> findArchived(String queryName, String parameter, Object value) {
+        List<ArchivedUser> archivedUsers = entityManager.createNamedQuery(queryName, ArchivedUser.class)
+            .setParameter(parameter, value)
+            .getResultList();
+        return archivedUsers.isEmpty() ? Optional.empty() : Optional.of(archivedUsers.get(0).toUser());
+    }
+    
+    // Tops up a hot-table batch result with archived users for the keys it did not find
+    private <K> List<User> withArchived(List<User> users, Collection<K> keys, Function<User, K> keyOf,
+                                        String queryName, String parameter) {
+        if (users.size() >= keys.size()) {
+            return users;
+        }
+        Set<K> missing = new HashSet<>(keys);
+        users.forEach(user -> missing.remove(keyOf.apply(user)));
+        
+        List<User> result = new ArrayList<>(users);
+        entityManager.createNamedQuery(queryName, ArchivedUser.class)
+            .setParameter(parameter, missing)
+            .getResultList()
+            .forEach(archivedUser -> result.add(archivedUser.toUser()));
+        return result;
+    }
 }
@@ -0,0 +1,66 @@
+package com.example.demo.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Selects the users affected by a bulk state change.
+ * At least one of {@code ids}, {@code createdBefore} or {@code emailDomain} must be set;
+ * {@code afterId} resumes a previous run and {@code maxRows} bounds a single call.
+ */
+public class BulkUserFilter {
+    
+    private List<Long> ids;
+    private LocalDateTime createdBefore;
+    private String emailDomain;
+    private Long afterId;
+    private Long maxRows;
+    
+    public List<Long> getIds() {
+        return ids;
+    }
+    
+    public void setIds(List<Long> ids) {
+        this.ids = ids;
+    }
+    
+    public LocalDateTime getCreatedBefore() {
+        return createdBefore;
+    }
+    
+    public void setCreatedBefore(LocalDateTime createdBefore) {
+        this.createdBefore = createdBefore;
+    }
+    
+    public String getEmailDomain() {
+        return emailDomain;
+    }
+    
+    public void setEmailDomain(String emailDomain) {
+        this.emailDomain = emailDomain;
+    }
+    
+    public Long getAfterId() {
+        return afterId;
+    }
+    
+    public void setAfterId(Long afterId) {
+        this.afterId = afterId;
+    }
+    
+    public Long getMaxRows() {
+        return maxRows;
+    }
+    
+    public void setMaxRows(Long maxRows) {
+        this.maxRows = maxRows;
+    }
+    
+    public boolean hasIds() {
+        return ids != null && !ids.isEmpty();
+    }
+    
+    public boolean hasCriteria() {
+        return hasIds() || createdBefore != null || (emailDomain != null && !emailDomain.isBlank());
+    }
+}
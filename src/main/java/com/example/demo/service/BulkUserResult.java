@@ -0,0 +1,57 @@
+package com.example.demo.service;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Outcome of a chunked bulk state change
+ */
+public class BulkUserResult {
+    
+    private final long matchedRows;
+    private final long affectedRows;
+    private final int chunks;
+    private final Long lastProcessedId;
+    private final boolean completed;
+    
+    public BulkUserResult(long matchedRows, long affectedRows, int chunks, Long lastProcessedId, boolean completed) {
+        this.matchedRows = matchedRows;
+        this.affectedRows = affectedRows;
+        this.chunks = chunks;
+        this.lastProcessedId = lastProcessedId;
+        this.completed = completed;
+    }
+    
+    public long getMatchedRows() {
+        return matchedRows;
+    }
+    
+    public long getAffectedRows() {
+        return affectedRows;
+    }
+    
+    public int getChunks() {
+        return chunks;
+    }
+    
+    /**
+     * Pass back as {@code afterId} to resume when {@link #isCompleted()} is false
+     */
+    public Long getLastProcessedId() {
+        return lastProcessedId;
+    }
+    
+    public boolean isCompleted() {
+        return completed;
+    }
+    
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new HashMap<>();
+        map.put("matchedRows", matchedRows);
+        map.put("affectedRows", affectedRows);
+        map.put("chunks", chunks);
+        map.put("lastProcessedId", lastProcessedId);
+        map.put("completed", completed);
+        return map;
+    }
+}
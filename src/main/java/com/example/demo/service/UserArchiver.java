@@ -0,0 +1,94 @@
+package com.example.demo.service;
+
+import com.example.demo.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Moves inactive users from the hot {@code users} table to {@code users_archive}.
+ * With a retention of zero days users are archived as soon as they are deactivated;
+ * otherwise a background sweep archives users inactive for longer than the retention period.
+ */
+@Component
+public class UserArchiver {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserArchiver.class);
+
+    private final UserRepository userRepository;
+    private final UserDirectory userDirectory;
+    private final boolean enabled;
+    private final int retentionDays;
+    private final int chunkSize;
+
+    @Autowired
+    public UserArchiver(UserRepository userRepository,
+                        UserDirectory userDirectory,
+                        @Value("${user.archive.enabled:false}") boolean enabled,
+                        @Value("${user.archive.retention-days:30}") int retentionDays,
+                        @Value("${user.archive.chunk-size:1000}") int chunkSize) {
+        this.userRepository = userRepository;
+        this.userDirectory = userDirectory;
+        this.enabled = enabled;
+        this.retentionDays = retentionDays;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Called within the deactivating transaction
+     */
+    public void onDeactivated(Long id) {
+        onDeactivated(List.of(id));
+    }
+
+    /**
+     * Called after deactivating {@code ids}, within the same transaction or after it committed
+     */
+    public void onDeactivated(Collection<Long> ids) {
+        if (enabled && retentionDays == 0 && !ids.isEmpty()) {
+            userRepository.archiveAll(ids);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${user.archive.sweep-interval-ms:600000}",
+               initialDelayString = "${user.archive.sweep-interval-ms:600000}")
+    public void sweep() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+        long archived = 0;
+
+        // Each chunk commits on its own; archived rows drop out of the next lookup
+        List<Long> ids;
+        while (!(ids = userRepository.findIdsToArchive(cutoff, chunkSize)).isEmpty()) {
+            int moved = userRepository.archiveAll(ids);
+            userDirectory.invalidateCommitted(ids);
+            archived += moved;
+            if (moved == 0) {
+                break;
+            }
+        }
+
+        if (archived > 0) {
+            logger.info("Archived {} users inactive since before {}", archived, cutoff);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("retentionDays", retentionDays);
+        stats.put("archivedUsers", userRepository.countArchived());
+        return stats;
+    }
+}
@@ -0,0 +1,223 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.User;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Loads users by a single key, DataLoader style.
+ * Concurrent loads of the same key share one in-flight future, and distinct keys
+ * arriving within the batch window are fetched together with one {@code IN} query.
+ * A load is only shared while no write has happened since it was requested,
+ * so a read that follows a committed write never joins a load that may predate it.
+ */
+public class UserBatchLoader<K> {
+
+    private final Function<Collection<K>, List<User>> batchQuery;
+    private final Function<User, K> keyOf;
+    private final LongSupplier writeGeneration;
+    private final ScheduledExecutorService executor;
+    private final long windowMicros;
+    private final int maxBatchSize;
+    private final long timeoutMillis;
+
+    private final ConcurrentHashMap<K, Load<K>> inFlight = new ConcurrentHashMap<>();
+    private final Object batchLock = new Object();
+    private List<Load<K>> pendingLoads = new ArrayList<>();
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder batchedKeys = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final AtomicLong largestBatch = new AtomicLong();
+
+    public UserBatchLoader(Function<Collection<K>, List<User>> batchQuery,
+                           Function<User, K> keyOf,
+                           LongSupplier writeGeneration,
+                           ScheduledExecutorService executor,
+                           long windowMicros,
+                           int maxBatchSize,
+                           long timeoutMillis) {
+        this.batchQuery = batchQuery;
+        this.keyOf = keyOf;
+        this.writeGeneration = writeGeneration;
+        this.executor = executor;
+        this.windowMicros = windowMicros;
+        this.maxBatchSize = maxBatchSize;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Blocks the calling thread until the batch holding {@code key} has been loaded, or the timeout expires.
+     * The caller holds no connection while waiting; the query runs on the loader executor.
+     */
+    public Optional<User> load(K key) {
+        if (key == null) {
+            return Optional.empty();
+        }
+        requests.increment();
+
+        Load<K> created = new Load<>(key, writeGeneration.getAsLong());
+        Load<K> existing = inFlight.putIfAbsent(key, created);
+        while (existing != null) {
+            if (existing.generation == created.generation) {
+                coalesced.increment();
+                return await(existing);
+            }
+            // Requested before a write that has since happened; its result may be stale, so take its place
+            if (inFlight.replace(key, existing, created)) {
+                break;
+            }
+            existing = inFlight.putIfAbsent(key, created);
+        }
+
+        enqueue(created);
+        return await(created);
+    }
+
+    public void resetStats() {
+        requests.reset();
+        coalesced.reset();
+        batches.reset();
+        batchedKeys.reset();
+        timeouts.reset();
+        largestBatch.set(0);
+    }
+
+    public Map<String, Object> getStats() {
+        long batchCount = batches.sum();
+        long keyCount = batchedKeys.sum();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("requests", requests.sum());
+        stats.put("coalesced", coalesced.sum());
+        stats.put("batches", batchCount);
+        stats.put("batchedKeys", keyCount);
+        stats.put("averageBatchSize", batchCount == 0 ? 0.0 : (double) keyCount / batchCount);
+        stats.put("largestBatch", largestBatch.get());
+        stats.put("timeouts", timeouts.sum());
+        stats.put("inFlight", inFlight.size());
+        return stats;
+    }
+
+    private void enqueue(Load<K> load) {
+        List<Load<K>> full = null;
+        boolean firstInWindow;
+        synchronized (batchLock) {
+            pendingLoads.add(load);
+            firstInWindow = pendingLoads.size() == 1;
+            if (pendingLoads.size() >= maxBatchSize) {
+                full = pendingLoads;
+                pendingLoads = new ArrayList<>();
+            }
+        }
+
+        try {
+            if (full != null) {
+                List<Load<K>> loads = full;
+                executor.execute(() -> dispatch(loads));
+            } else if (firstInWindow) {
+                executor.schedule(this::flush, windowMicros, TimeUnit.MICROSECONDS);
+            }
+        } catch (RejectedExecutionException e) {
+            // Nothing will run the batch; fail it rather than leave its callers waiting
+            fail(full != null ? full : drainPending(), e);
+        }
+    }
+
+    private void flush() {
+        List<Load<K>> loads = drainPending();
+        if (!loads.isEmpty()) {
+            dispatch(loads);
+        }
+    }
+
+    private List<Load<K>> drainPending() {
+        synchronized (batchLock) {
+            List<Load<K>> loads = pendingLoads;
+            pendingLoads = new ArrayList<>();
+            return loads;
+        }
+    }
+
+    private void dispatch(List<Load<K>> loads) {
+        Set<K> keys = new LinkedHashSet<>();
+        loads.forEach(load -> keys.add(load.key));
+        batches.increment();
+        batchedKeys.add(keys.size());
+        largestBatch.accumulateAndGet(keys.size(), Math::max);
+
+        Map<K, User> found = new HashMap<>();
+        try {
+            for (User user : batchQuery.apply(keys)) {
+                found.put(keyOf.apply(user), user);
+            }
+        } catch (Throwable e) {
+            fail(loads, e);
+            throw e;
+        }
+
+        for (Load<K> load : loads) {
+            inFlight.remove(load.key, load);
+            load.future.complete(Optional.ofNullable(found.get(load.key)));
+        }
+    }
+
+    private void fail(List<Load<K>> loads, Throwable cause) {
+        for (Load<K> load : loads) {
+            inFlight.remove(load.key, load);
+            load.future.completeExceptionally(cause);
+        }
+    }
+
+    private Optional<User> await(Load<K> load) {
+        try {
+            return load.future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            timeouts.increment();
+            // Later callers start a fresh load instead of queueing behind this one
+            inFlight.remove(load.key, load);
+            throw new IllegalStateException("Timed out after " + timeoutMillis + " ms loading user " + load.key, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while loading user " + load.key, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static final class Load<K> {
+        private final K key;
+        private final long generation;
+        private final CompletableFuture<Optional<User>> future = new CompletableFuture<>();
+
+        private Load(K key, long generation) {
+            this.key = key;
+            this.generation = generation;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.User;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process read-through directory of detached users.
+ * Serves id, username and email lookups without a transaction or a pooled connection.
+ * Entries are evicted on every write, once immediately and again after the writing transaction commits.
+ * When full, an arbitrary entry is evicted to make room for each new one.
+ */
+@Component
+public class UserDirectory {
+
+    private final boolean enabled;
+    private final int maxEntries;
+
+    private final ConcurrentHashMap<Long, User> usersById = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Long> idsByUsername = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Long> idsByEmail = new ConcurrentHashMap<>();
+
+    // Bumped on every invalidation so that loads racing with a write are not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder capacityEvictions = new LongAdder();
+
+    public UserDirectory(@Value("${user.directory.enabled:true}") boolean enabled,
+                         @Value("${user.directory.max-entries:100000}") int maxEntries) {
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long generation() {
+        return generation.get();
+    }
+
+    public User findById(Long id) {
+        return record(id == null ? null : usersById.get(id));
+    }
+
+    public User findByUsername(String username) {
+        Long id = username == null ? null : idsByUsername.get(username);
+        User user = id == null ? null : usersById.get(id);
+        // Index entries may briefly outlive their record; only trust a matching one
+        return record(user != null && username.equals(user.getUsername()) ? user : null);
+    }
+
+    public User findByEmail(String email) {
+        Long id = email == null ? null : idsByEmail.get(email);
+        User user = id == null ? null : usersById.get(id);
+        return record(user != null && email.equals(user.getEmail()) ? user : null);
+    }
+
+    /**
+     * Caches a user loaded outside of any transaction, unless a write happened
+     * since {@code loadGeneration} was read.
+     */
+    public void put(User user, long loadGeneration) {
+        if (!enabled || user == null || user.getId() == null) {
+            return;
+        }
+        if (generation.get() != loadGeneration) {
+            return;
+        }
+        if (!usersById.containsKey(user.getId())) {
+            makeRoom();
+        }
+
+        usersById.put(user.getId(), user);
+        idsByUsername.put(user.getUsername(), user.getId());
+        idsByEmail.put(user.getEmail(), user.getId());
+
+        // An invalidation may have slipped in between the check and the puts
+        if (generation.get() != loadGeneration) {
+            evict(user.getId());
+        }
+    }
+
+    /**
+     * Evicts {@code id} and starts a new write generation, now and again when the current transaction completes.
+     * Runs even when caching is disabled, as {@link UserLoader} only shares loads within one generation.
+     */
+    public void invalidate(Long id) {
+        if (id == null) {
+            return;
+        }
+        generation.incrementAndGet();
+        evict(id);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    generation.incrementAndGet();
+                    evict(id);
+                }
+            });
+        }
+    }
+
+    /**
+     * Evicts users changed by statements that have already committed, such as bulk updates
+     */
+    public void invalidateCommitted(Collection<Long> ids) {
+        generation.incrementAndGet();
+        for (Long id : ids) {
+            evict(id);
+        }
+    }
+
+    public void clear() {
+        generation.incrementAndGet();
+        usersById.clear();
+        idsByUsername.clear();
+        idsByEmail.clear();
+    }
+
+    /**
+     * Zeroes the hit, miss and eviction counters, leaving cached entries in place
+     */
+    public void resetStats() {
+        hits.reset();
+        misses.reset();
+        evictions.reset();
+        capacityEvictions.reset();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("size", usersById.size());
+        stats.put("maxEntries", maxEntries);
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("evictions", evictions.sum());
+        stats.put("capacityEvictions", capacityEvictions.sum());
+        return stats;
+    }
+
+    private User record(User user) {
+        if (enabled) {
+            if (user != null) {
+                hits.increment();
+            } else {
+                misses.increment();
+            }
+        }
+        return user;
+    }
+
+    // Evicts whatever the map iterates first; hash order makes that effectively random
+    private void makeRoom() {
+        Iterator<Long> ids = usersById.keySet().iterator();
+        while (usersById.size() >= maxEntries && ids.hasNext()) {
+            if (evict(ids.next())) {
+                capacityEvictions.increment();
+            }
+        }
+    }
+
+    private boolean evict(Long id) {
+        User removed = usersById.remove(id);
+        if (removed != null) {
+            idsByUsername.remove(removed.getUsername(), id);
+            idsByEmail.remove(removed.getEmail(), id);
+            evictions.increment();
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.demo.service;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress and outcome of a single CSV user import
+ */
+public class UserImportJob {
+
+    public enum Status {
+        QUEUED, PARSING, LOADING, COMPLETED, FAILED
+    }
+
+    private final long id;
+    private final String source;
+    private final LocalDateTime submittedAt = LocalDateTime.now();
+
+    private final AtomicLong parsedRows = new AtomicLong();
+    private final AtomicLong rejectedRows = new AtomicLong();
+
+    private volatile Status status = Status.QUEUED;
+    private volatile long importedRows;
+    private volatile String message;
+    private volatile LocalDateTime finishedAt;
+
+    public UserImportJob(long id, String source) {
+        this.id = id;
+        this.source = source;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public void addParsedRows(long rows) {
+        parsedRows.addAndGet(rows);
+    }
+
+    public void addRejectedRows(long rows) {
+        rejectedRows.addAndGet(rows);
+    }
+
+    public void setImportedRows(long importedRows) {
+        this.importedRows = importedRows;
+    }
+
+    public void complete(Status status, String message) {
+        this.status = status;
+        this.message = message;
+        this.finishedAt = LocalDateTime.now();
+    }
+
+    public boolean isFinished() {
+        return status == Status.COMPLETED || status == Status.FAILED;
+    }
+
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new HashMap<>();
+        map.put("jobId", id);
+        map.put("source", source);
+        map.put("status", status);
+        map.put("parsedRows", parsedRows.get());
+        map.put("rejectedRows", rejectedRows.get());
+        map.put("importedRows", importedRows);
+        map.put("submittedAt", submittedAt);
+        map.put("finishedAt", finishedAt);
+        map.put("message", message);
+        return map;
+    }
+}
@@ -0,0 +1,546 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.User;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk CSV import and export of users.
+ * Rows are parsed and validated in parallel chunks into a staging table, then
+ * duplicates are resolved in one ordered pass and accepted rows are inserted with set-based SQL.
+ */
+@Service
+public class UserImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserImportService.class);
+
+    private static final int CHUNK_SIZE = 10_000;
+    private static final int MAX_RETAINED_JOBS = 20;
+
+    private static final String INSERT_STAGING_SQL =
+        "INSERT INTO users_import_staging (job_id, line_no, username, email, first_name, last_name, active, reject_reason) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Remaining valid lines in file order, for the single in-file duplicate pass
+    private static final String SELECT_STAGED_KEYS_SQL =
+        "SELECT line_no, username, email FROM users_import_staging " +
+        "WHERE job_id = ? AND reject_reason IS NULL ORDER BY line_no";
+
+    private static final String REJECT_LINE_SQL =
+        "UPDATE users_import_staging SET reject_reason = ? WHERE job_id = ? AND line_no = ?";
+
+    private static final String REJECT_EXISTING_USERNAME_SQL =
+        "UPDATE users_import_staging s SET reject_reason = 'Username already exists' " +
+        "WHERE s.job_id = ? AND s.reject_reason IS NULL AND EXISTS (" +
+        "SELECT 1 FROM user_keys k WHERE k.username = s.username)";
+
+    private static final String REJECT_EXISTING_EMAIL_SQL =
+        "UPDATE users_import_staging s SET reject_reason = 'Email already exists' " +
+        "WHERE s.job_id = ? AND s.reject_reason IS NULL AND EXISTS (" +
+        "SELECT 1 FROM user_keys k WHERE k.email = s.email)";
+
+    private static final String INSERT_USERS_SQL =
+        "INSERT INTO users (username, email, first_name, last_name, active, created_at, updated_at) " +
+        "SELECT s.username, s.email, s.first_name, s.last_name, s.active, LOCALTIMESTAMP, LOCALTIMESTAMP " +
+        "FROM users_import_staging s WHERE s.job_id = ? AND s.reject_reason IS NULL ORDER BY s.line_no";
+
+    // Ids are only known once the users are inserted; a clash here with a concurrent writer fails the whole load
+    private static final String INSERT_KEYS_SQL =
+        "INSERT INTO user_keys (user_id, username, email) " +
+        "SELECT u.id, u.username, u.email FROM users u JOIN users_import_staging s ON s.username = u.username " +
+        "WHERE s.job_id = ? AND s.reject_reason IS NULL";
+
+    private static final String EXPORT_SQL =
+        "SELECT id, username, email, first_name, last_name, active, created_at FROM users " +
+        "UNION ALL " +
+        "SELECT id, username, email, first_name, last_name, active, created_at FROM users_archive " +
+        "ORDER BY id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final UserStatsRollup userStatsRollup;
+    private final UserValidator userValidator;
+    private final Path importDirectory;
+    private final int parallelism;
+
+    private final ExecutorService jobExecutor;
+    private final ExecutorService parseExecutor;
+    private final AtomicLong jobIds = new AtomicLong();
+    private final Map<Long, UserImportJob> jobs = new ConcurrentHashMap<>();
+
+    @Autowired
+    public UserImportService(JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager,
+                             UserStatsRollup userStatsRollup,
+                             UserValidator userValidator,
+                             @Value("${user.import.directory:${java.io.tmpdir}/user-imports}") String importDirectory,
+                             @Value("${user.import.parallelism:4}") int parallelism) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.userStatsRollup = userStatsRollup;
+        this.userValidator = userValidator;
+        this.importDirectory = Paths.get(importDirectory).toAbsolutePath().normalize();
+        this.parallelism = Math.max(1, parallelism);
+        this.jobExecutor = Executors.newSingleThreadExecutor(daemonThreads("user-import-job"));
+        this.parseExecutor = Executors.newFixedThreadPool(this.parallelism, daemonThreads("user-import-parse"));
+    }
+
+    @PostConstruct
+    public void createStagingTable() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS users_import_staging (" +
+            "job_id BIGINT NOT NULL, " +
+            "line_no BIGINT NOT NULL, " +
+            "username VARCHAR(255), " +
+            "email VARCHAR(255), " +
+            "first_name VARCHAR(255), " +
+            "last_name VARCHAR(255), " +
+            "active BOOLEAN, " +
+            "reject_reason VARCHAR(255), " +
+            "PRIMARY KEY (job_id, line_no))");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_import_staging_username ON users_import_staging (job_id, username)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_import_staging_email ON users_import_staging (job_id, email)");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobExecutor.shutdownNow();
+        parseExecutor.shutdownNow();
+    }
+
+    public UserImportJob submitUpload(InputStream content, String filename) throws IOException {
+        Path tempFile = Files.createTempFile("user-import-", ".csv");
+        Files.copy(content, tempFile, StandardCopyOption.REPLACE_EXISTING);
+        return submit(tempFile, "upload:" + filename, true);
+    }
+
+    public UserImportJob submitServerFile(String path) {
+        Path file = importDirectory.resolve(path).normalize();
+        if (!file.startsWith(importDirectory)) {
+            throw new IllegalArgumentException("Import path must be inside " + importDirectory);
+        }
+        if (!Files.isRegularFile(file)) {
+            throw new IllegalArgumentException("Import file not found: " + path);
+        }
+        return submit(file, "file:" + file, false);
+    }
+
+    public Optional<UserImportJob> getJob(long jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    public void writeRejectedRows(long jobId, Writer writer) {
+        writeLine(writer, "line", "reason", "username", "email");
+        jdbcTemplate.query(
+            "SELECT line_no, reject_reason, username, email FROM users_import_staging " +
+            "WHERE job_id = ? AND reject_reason IS NOT NULL ORDER BY line_no",
+            rs -> {
+                writeLine(writer, String.valueOf(rs.getLong(1)), rs.getString(2), rs.getString(3), rs.getString(4));
+            },
+            jobId);
+    }
+
+    public void exportUsers(Writer writer) {
+        // Same column names as the import header, so an export can be imported again
+        writeLine(writer, "id", "username", "email", "firstName", "lastName", "active", "createdAt");
+        jdbcTemplate.query(EXPORT_SQL, rs -> {
+            writeLine(writer,
+                String.valueOf(rs.getLong(1)),
+                rs.getString(2),
+                rs.getString(3),
+                rs.getString(4),
+                rs.getString(5),
+                String.valueOf(rs.getBoolean(6)),
+                String.valueOf(rs.getTimestamp(7).toLocalDateTime()));
+        });
+    }
+
+    private UserImportJob submit(Path file, String source, boolean deleteWhenDone) {
+        UserImportJob job = new UserImportJob(jobIds.incrementAndGet(), source);
+        jobs.put(job.getId(), job);
+        evictOldJobs();
+        jobExecutor.submit(() -> run(job, file, deleteWhenDone));
+        return job;
+    }
+
+    private void run(UserImportJob job, Path file, boolean deleteWhenDone) {
+        long start = System.currentTimeMillis();
+        try {
+            job.setStatus(UserImportJob.Status.PARSING);
+            stage(job, file);
+
+            job.setStatus(UserImportJob.Status.LOADING);
+            long imported = load(job);
+            job.setImportedRows(imported);
+            if (imported > 0) {
+                userStatsRollup.rebuild();
+            }
+
+            job.complete(UserImportJob.Status.COMPLETED, "Import completed in " + (System.currentTimeMillis() - start) + " ms");
+            logger.info("Import job {} completed: {}", job.getId(), job.toMap());
+        } catch (Exception e) {
+            logger.error("Import job {} failed", job.getId(), e);
+            job.complete(UserImportJob.Status.FAILED, e.getMessage());
+        } finally {
+            if (deleteWhenDone) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    logger.warn("Could not delete import file {}", file, e);
+                }
+            }
+        }
+    }
+
+    private void stage(UserImportJob job, Path file) throws IOException, InterruptedException, ExecutionException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            long[] lineNo = {0};
+            String header = readRecord(reader, lineNo);
+            if (header == null) {
+                throw new IllegalArgumentException("CSV file is empty");
+            }
+            CsvLayout layout = CsvLayout.fromHeader(parseLine(header));
+
+            // Bound the number of chunks held in memory while the reader runs ahead
+            Semaphore inFlight = new Semaphore(parallelism * 2);
+            List<Future<?>> chunks = new ArrayList<>();
+            List<String> records = new ArrayList<>(CHUNK_SIZE);
+            List<Long> lineNos = new ArrayList<>(CHUNK_SIZE);
+
+            String record;
+            long recordLineNo = lineNo[0] + 1;
+            while ((record = readRecord(reader, lineNo)) != null) {
+                records.add(record);
+                lineNos.add(recordLineNo);
+                recordLineNo = lineNo[0] + 1;
+                if (records.size() == CHUNK_SIZE) {
+                    chunks.add(submitChunk(job, layout, lineNos, records, inFlight));
+                    records = new ArrayList<>(CHUNK_SIZE);
+                    lineNos = new ArrayList<>(CHUNK_SIZE);
+                }
+            }
+            if (!records.isEmpty()) {
+                chunks.add(submitChunk(job, layout, lineNos, records, inFlight));
+            }
+
+            for (Future<?> chunk : chunks) {
+                chunk.get();
+            }
+        }
+    }
+
+    private Future<?> submitChunk(UserImportJob job, CsvLayout layout, List<Long> lineNos,
+                                  List<String> records, Semaphore inFlight) throws InterruptedException {
+        inFlight.acquire();
+        return parseExecutor.submit(() -> {
+            try {
+                stageChunk(job, layout, lineNos, records);
+            } finally {
+                inFlight.release();
+            }
+        });
+    }
+
+    private void stageChunk(UserImportJob job, CsvLayout layout, List<Long> recordLineNos, List<String> records) {
+        List<User> users = new ArrayList<>(records.size());
+        List<Long> lineNos = new ArrayList<>(records.size());
+        List<String> formatErrors = new ArrayList<>(records.size());
+
+        for (int i = 0; i < records.size(); i++) {
+            String record = records.get(i);
+            if (record.isBlank()) {
+                continue;
+            }
+            User user = new User();
+            formatErrors.add(layout.populate(user, parseLine(record)));
+            users.add(user);
+            lineNos.add(recordLineNos.get(i));
+        }
+
+        // Chunks already run in parallel on the parse pool
+        Map<Integer, List<String>> violations = userValidator.validateAll(users);
+
+        List<Object[]> rows = new ArrayList<>(users.size());
+        long rejected = 0;
+        for (int i = 0; i < users.size(); i++) {
+            User user = users.get(i);
+            String reason = formatErrors.get(i);
+            if (reason == null && violations.containsKey(i)) {
+                reason = String.join("; ", violations.get(i));
+            }
+            if (reason != null) {
+                rejected++;
+            }
+            rows.add(new Object[] {
+                job.getId(), lineNos.get(i),
+                truncate(user.getUsername()), truncate(user.getEmail()),
+                truncate(user.getFirstName()), truncate(user.getLastName()),
+                user.getActive(), truncate(reason)
+            });
+        }
+
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_STAGING_SQL, rows));
+        job.addParsedRows(rows.size());
+        job.addRejectedRows(rejected);
+    }
+
+    private long load(UserImportJob job) {
+        long jobId = job.getId();
+        Long imported = transactionTemplate.execute(status -> {
+            // Clashes with existing users first, so they cannot knock out later lines of the file
+            job.addRejectedRows(jdbcTemplate.update(REJECT_EXISTING_USERNAME_SQL, jobId));
+            job.addRejectedRows(jdbcTemplate.update(REJECT_EXISTING_EMAIL_SQL, jobId));
+
+            job.addRejectedRows(rejectDuplicatesInFile(jobId));
+
+            long inserted = jdbcTemplate.update(INSERT_USERS_SQL, jobId);
+            jdbcTemplate.update(INSERT_KEYS_SQL, jobId);
+
+            // Only rejected rows are kept, for the report
+            jdbcTemplate.update("DELETE FROM users_import_staging WHERE job_id = ? AND reject_reason IS NULL", jobId);
+            return inserted;
+        });
+        return imported == null ? 0 : imported;
+    }
+
+    /**
+     * Walks the remaining lines once in file order. A line is accepted unless an earlier accepted line
+     * already took its username or email, so a line is never rejected because of one that was itself rejected.
+     */
+    private long rejectDuplicatesInFile(long jobId) {
+        Set<String> usernames = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        List<Object[]> rejects = new ArrayList<>();
+        jdbcTemplate.query(SELECT_STAGED_KEYS_SQL, rs -> {
+            String username = rs.getString(2);
+            String email = rs.getString(3);
+            if (usernames.contains(username)) {
+                rejects.add(new Object[] {"Duplicate username in file", jobId, rs.getLong(1)});
+            } else if (emails.contains(email)) {
+                rejects.add(new Object[] {"Duplicate email in file", jobId, rs.getLong(1)});
+            } else {
+                usernames.add(username);
+                emails.add(email);
+            }
+        }, jobId);
+
+        // Applied after the scan so the staging table is not updated under an open result set
+        for (int from = 0; from < rejects.size(); from += CHUNK_SIZE) {
+            jdbcTemplate.batchUpdate(REJECT_LINE_SQL, rejects.subList(from, Math.min(from + CHUNK_SIZE, rejects.size())));
+        }
+        return rejects.size();
+    }
+
+    private void evictOldJobs() {
+        while (jobs.size() > MAX_RETAINED_JOBS) {
+            Optional<UserImportJob> oldest = jobs.values().stream()
+                .filter(UserImportJob::isFinished)
+                .min((a, b) -> Long.compare(a.getId(), b.getId()));
+            if (oldest.isEmpty()) {
+                return;
+            }
+            jobs.remove(oldest.get().getId());
+            jdbcTemplate.update("DELETE FROM users_import_staging WHERE job_id = ?", oldest.get().getId());
+        }
+    }
+
+    /**
+     * Reads the next CSV record, joining physical lines while a quoted field is still open.
+     * Advances {@code lineNo[0]} by the number of lines consumed; returns null at end of input.
+     */
+    static String readRecord(BufferedReader reader, long[] lineNo) throws IOException {
+        String line = reader.readLine();
+        if (line == null) {
+            return null;
+        }
+        lineNo[0]++;
+        StringBuilder record = new StringBuilder(line);
+        // Doubled quotes toggle twice, so an odd running count means a quoted field spans the line break
+        boolean open = countQuotes(line) % 2 == 1;
+        while (open && (line = reader.readLine()) != null) {
+            lineNo[0]++;
+            record.append('\n').append(line);
+            open ^= countQuotes(line) % 2 == 1;
+        }
+        return record.toString();
+    }
+
+    private static int countQuotes(String line) {
+        int quotes = 0;
+        for (int i = 0; i < line.length(); i++) {
+            if (line.charAt(i) == '"') {
+                quotes++;
+            }
+        }
+        return quotes;
+    }
+
+    /**
+     * Splits a single CSV record; quoted fields may contain commas, doubled quotes and line breaks
+     */
+    static List<String> parseLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static void writeLine(Writer writer, String... values) {
+        try {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writer.write(escape(values[i]));
+            }
+            writer.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static String truncate(String value) {
+        return value == null || value.length() <= 255 ? value : value.substring(0, 255);
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicLong counter = new AtomicLong();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Column positions resolved from the CSV header
+     */
+    private static final class CsvLayout {
+
+        private final int username;
+        private final int email;
+        private final int firstName;
+        private final int lastName;
+        private final int active;
+
+        private CsvLayout(int username, int email, int firstName, int lastName, int active) {
+            this.username = username;
+            this.email = email;
+            this.firstName = firstName;
+            this.lastName = lastName;
+            this.active = active;
+        }
+
+        static CsvLayout fromHeader(List<String> header) {
+            List<String> names = header.stream()
+                .map(name -> name.trim().replace("_", "").toLowerCase(Locale.ROOT))
+                .collect(Collectors.toList());
+            return new CsvLayout(
+                required(names, "username"),
+                required(names, "email"),
+                required(names, "firstname"),
+                required(names, "lastname"),
+                names.indexOf("active"));
+        }
+
+        private static int required(List<String> names, String name) {
+            int index = names.indexOf(name);
+            if (index < 0) {
+                throw new IllegalArgumentException("CSV header is missing column: " + name);
+            }
+            return index;
+        }
+
+        /**
+         * Copies the record into {@code user} and returns a reject reason, or null if it is well-formed
+         */
+        String populate(User user, List<String> fields) {
+            user.setUsername(field(fields, username));
+            user.setEmail(field(fields, email));
+            user.setFirstName(field(fields, firstName));
+            user.setLastName(field(fields, lastName));
+
+            String activeValue = active < 0 ? null : field(fields, active);
+            if (activeValue == null || activeValue.isEmpty() || activeValue.equalsIgnoreCase("true")) {
+                user.setActive(true);
+            } else if (activeValue.equalsIgnoreCase("false")) {
+                user.setActive(false);
+            } else {
+                return "Invalid active flag: " + activeValue;
+            }
+            return null;
+        }
+
+        private static String field(List<String> fields, int index) {
+            return index < fields.size() ? fields.get(index).trim() : null;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.User;
+import com.example.demo.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Coalescing, batching loaders for single-user reads by id, username and email.
+ * Loads are shared only within one {@link UserDirectory} write generation.
+ */
+@Component
+public class UserLoader {
+
+    private final UserRepository userRepository;
+    private final boolean enabled;
+    private final ScheduledThreadPoolExecutor executor;
+
+    private final UserBatchLoader<Long> byId;
+    private final UserBatchLoader<String> byUsername;
+    private final UserBatchLoader<String> byEmail;
+
+    @Autowired
+    public UserLoader(UserRepository userRepository,
+                      UserDirectory userDirectory,
+                      @Value("${user.loader.enabled:true}") boolean enabled,
+                      @Value("${user.loader.batch-window-micros:500}") long windowMicros,
+                      @Value("${user.loader.max-batch-size:256}") int maxBatchSize,
+                      @Value("${user.loader.threads:4}") int threads,
+                      @Value("${user.loader.timeout-ms:5000}") long timeoutMillis) {
+        this.userRepository = userRepository;
+        this.enabled = enabled;
+
+        AtomicLong counter = new AtomicLong();
+        this.executor = new ScheduledThreadPoolExecutor(threads, runnable -> {
+            Thread thread = new Thread(runnable, "user-loader-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.byId = new UserBatchLoader<>(userRepository::findAllById, User::getId,
+            userDirectory::generation, executor, windowMicros, maxBatchSize, timeoutMillis);
+        this.byUsername = new UserBatchLoader<>(userRepository::findAllByUsername, User::getUsername,
+            userDirectory::generation, executor, windowMicros, maxBatchSize, timeoutMillis);
+        this.byEmail = new UserBatchLoader<>(userRepository::findAllByEmail, User::getEmail,
+            userDirectory::generation, executor, windowMicros, maxBatchSize, timeoutMillis);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public Optional<User> loadById(Long id) {
+        return enabled ? byId.load(id) : userRepository.findById(id);
+    }
+
+    public Optional<User> loadByUsername(String username) {
+        return enabled ? byUsername.load(username) : userRepository.findByUsername(username);
+    }
+
+    public Optional<User> loadByEmail(String email) {
+        return enabled ? byEmail.load(email) : userRepository.findByEmail(email);
+    }
+
+    public void resetStats() {
+        byId.resetStats();
+        byUsername.resetStats();
+        byEmail.resetStats();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("byId", byId.getStats());
+        stats.put("byUsername", byUsername.getStats());
+        stats.put("byEmail", byEmail.getStats());
+        return stats;
+    }
+}
@@ -3,24 +3,55 @@ package com.example.demo.service;
 import com.example.demo.entity.User;
 import com.example.demo.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeSet;
+import java.util.function.ToIntFunction;
+import java.util.regex.Pattern;
 
 @Service
 @Transactional
 public class UserService {
     
+    // Dot-separated hostname labels: letters, digits and inner hyphens
+    private static final Pattern EMAIL_DOMAIN =
+        Pattern.compile("[a-z0-9](?:[a-z0-9-]{0,61}[a-z0-9])?(?:\\.[a-z0-9](?:[a-z0-9-]{0,61}[a-z0-9])?)*");
+    
     private final UserRepository userRepository;
+    private final UserDirectory userDirectory;
+    private final UserLoader userLoader;
+    private final UserStatsRollup userStatsRollup;
+    private final UserArchiver userArchiver;
+    private final UserValidator userValidator;
+    private final int bulkChunkSize;
     
     @Autowired
-    public UserService(UserRepository userRepository) {
+    public UserService(UserRepository userRepository, UserDirectory userDirectory, UserLoader userLoader,
+                       UserStatsRollup userStatsRollup, UserArchiver userArchiver, UserValidator userValidator,
+                       @Value("${user.bulk.chunk-size:1000}") int bulkChunkSize) {
         this.userRepository = userRepository;
+        this.userDirectory = userDirectory;
+        this.userLoader = userLoader;
+        this.userStatsRollup = userStatsRollup;
+        this.userArchiver = userArchiver;
+        this.userValidator = userValidator;
+        this.bulkChunkSize = bulkChunkSize;
     }
     
     public User createUser(User user) {
+        validate(user);
+        
         // Validate unique username and email
         if (userRepository.existsByUsername(user.getUsername())) {
             throw new IllegalArgumentException("Username already exists: " + user.getUsername());
@@ -30,16 +61,28 @@ public class UserService {
             throw new IllegalArgumentException("Email already exists: " + user.getEmail());
         }
         
-        return userRepository.save(user);
+        User savedUser = userRepository.save(user);
+        // Nothing is cached yet, but in-flight lookups of its username or email must not be shared past this write
+        userDirectory.invalidate(savedUser.getId());
+        userStatsRollup.onCreated(savedUser);
+        return savedUser;
     }
     
     public User updateUser(Long id, User userDetails) {
-        Optional<User> existingUserOpt = userRepository.findById(id);
+        validate(userDetails);
+        
+        Optional<User> existingUserOpt = userRepository.findHotById(id);
+        if (existingUserOpt.isEmpty() && userRepository.restoreAll(List.of(id), false) > 0) {
+            // Archived users are moved back to the hot table before they are edited
+            existingUserOpt = userRepository.findHotById(id);
+        }
         if (existingUserOpt.isEmpty()) {
             throw new IllegalArgumentException("User not found with id: " + id);
         }
         
         User existingUser = existingUserOpt.get();
+        boolean wasActive = Boolean.TRUE.equals(existingUser.getActive());
+        userDirectory.invalidate(id);
         
         // Check if username is being changed and is unique
         if (!existingUser.getUsername().equals(userDetails.getUsername()) &&
@@ -53,6 +96,9 @@ public class UserService {
             throw new IllegalArgumentException("Email already exists: " + userDetails.getEmail());
         }
         
+        boolean keysChanged = !existingUser.getUsername().equals(userDetails.getUsername())
+            || !existingUser.getEmail().equals(userDetails.getEmail());
+        
         // Update fields
         existingUser.setUsername(userDetails.getUsername());
         existingUser.setEmail(userDetails.getEmail());
@@ -63,22 +109,67 @@ public class UserService {
             existingUser.setActive(userDetails.getActive());
         }
         
-        return userRepository.save(existingUser);
+        User savedUser = userRepository.save(existingUser);
+        if (keysChanged) {
+            userRepository.updateKeys(savedUser);
+        }
+        userStatsRollup.onActiveChanged(savedUser, wasActive);
+        return savedUser;
     }
     
-    @Transactional(readOnly = true)
+    // JPA does not validate on persist or update, so every write path checks the bean constraints here
+    private void validate(User user) {
+        List<String> violations = userValidator.validate(user);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException("Invalid user: " + String.join("; ", violations));
+        }
+    }
+    
+    // Single-user lookups run without a transaction of their own so that directory
+    // hits never open an EntityManager and callers waiting on a coalesced load never hold a connection
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Optional<User> getUserById(Long id) {
-        return userRepository.findById(id);
+        if (inCallerTransaction()) {
+            return userRepository.findById(id);
+        }
+        User cached = userDirectory.findById(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        long generation = userDirectory.generation();
+        Optional<User> user = userLoader.loadById(id);
+        user.ifPresent(u -> userDirectory.put(u, generation));
+        return user;
     }
     
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Optional<User> getUserByUsername(String username) {
-        return userRepository.findByUsername(username);
+        if (inCallerTransaction()) {
+            return userRepository.findByUsername(username);
+        }
+        User cached = userDirectory.findByUsername(username);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        long generation = userDirectory.generation();
+        Optional<User> user = userLoader.loadByUsername(username);
+        user.ifPresent(u -> userDirectory.put(u, generation));
+        return user;
     }
     
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Optional<User> getUserByEmail(String email) {
-        return userRepository.findByEmail(email);
+        if (inCallerTransaction()) {
+            return userRepository.findByEmail(email);
+        }
+        User cached = userDirectory.findByEmail(email);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        long generation = userDirectory.generation();
+        Optional<User> user = userLoader.loadByEmail(email);
+        user.ifPresent(u -> userDirectory.put(u, generation));
+        return user;
     }
     
     @Transactional(readOnly = true)
@@ -92,32 +183,81 @@ public class UserService {
     }
     
     public void deleteUser(Long id) {
-        if (!userRepository.existsById(id)) {
+        Optional<User> userOpt = userRepository.findById(id);
+        if (userOpt.isEmpty()) {
             throw new IllegalArgumentException("User not found with id: " + id);
         }
+        userDirectory.invalidate(id);
         userRepository.deleteById(id);
+        userStatsRollup.onDeleted(userOpt.get());
     }
     
     public void deactivateUser(Long id) {
-        Optional<User> userOpt = userRepository.findById(id);
+        Optional<User> userOpt = userRepository.findHotById(id);
         if (userOpt.isEmpty()) {
+            // Archived users are already inactive
+            if (userRepository.existsById(id)) {
+                return;
+            }
             throw new IllegalArgumentException("User not found with id: " + id);
         }
         
         User user = userOpt.get();
+        boolean wasActive = Boolean.TRUE.equals(user.getActive());
+        userDirectory.invalidate(id);
         user.setActive(false);
         userRepository.save(user);
+        userArchiver.onDeactivated(id);
+        userStatsRollup.onActiveChanged(user, wasActive);
     }
     
     public void activateUser(Long id) {
-        Optional<User> userOpt = userRepository.findById(id);
+        Optional<User> userOpt = userRepository.findHotById(id);
         if (userOpt.isEmpty()) {
-            throw new IllegalArgumentException("User not found with id: " + id);
+            Optional<User> archivedUser = userRepository.findById(id);
+            if (archivedUser.isEmpty()) {
+                throw new IllegalArgumentException("User not found with id: " + id);
+            }
+            userDirectory.invalidate(id);
+            userRepository.restoreAll(List.of(id), true);
+            archivedUser.get().setActive(true);
+            userStatsRollup.onActiveChanged(archivedUser.get(), false);
+            return;
         }
         
         User user = userOpt.get();
+        boolean wasActive = Boolean.TRUE.equals(user.getActive());
+        userDirectory.invalidate(id);
         user.setActive(true);
         userRepository.save(user);
+        userStatsRollup.onActiveChanged(user, wasActive);
+    }
+    
+    // Bulk operations commit chunk by chunk, each in its own repository transaction,
+    // so they must not run inside a caller's transaction
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BulkUserResult bulkDeactivate(BulkUserFilter filter) {
+        return runBulk(filter, ids -> {
+            int updated = userRepository.updateActive(ids, false);
+            userArchiver.onDeactivated(ids);
+            return updated;
+        });
+    }
+    
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BulkUserResult bulkActivate(BulkUserFilter filter) {
+        return runBulk(filter, ids -> userRepository.updateActive(ids, true));
+    }
+    
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BulkUserResult bulkDelete(BulkUserFilter filter) {
+        return runBulk(filter, userRepository::deleteAllById);
+    }
+    
+    // Served from in-memory rollups; no transaction or connection is needed
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Map<String, Object> getUserStats(UserStatsRollup.Bucket bucket, LocalDateTime from, LocalDateTime to) {
+        return userStatsRollup.query(bucket, from, to);
     }
     
     @Transactional(readOnly = true)
@@ -139,4 +279,105 @@ public class UserService {
     public boolean emailExists(String email) {
         return userRepository.existsByEmail(email);
     }
+    
+    public Map<String, Object> getDirectoryStats() {
+        return userDirectory.getStats();
+    }
+    
+    @Transactional(readOnly = true)
+    public Map<String, Object> getArchiveStats() {
+        return userArchiver.getStats();
+    }
+    
+    public Map<String, Object> getLoaderStats() {
+        return userLoader.getStats();
+    }
+    
+    private BulkUserResult runBulk(BulkUserFilter filter, ToIntFunction<Collection<Long>> operation) {
+        if (filter == null || !filter.hasCriteria()) {
+            throw new IllegalArgumentException("At least one of ids, createdBefore or emailDomain is required");
+        }
+        if (filter.getMaxRows() != null && filter.getMaxRows() < 1) {
+            throw new IllegalArgumentException("maxRows must be at least 1");
+        }
+        if (filter.getAfterId() != null && filter.getAfterId() < 0) {
+            throw new IllegalArgumentException("afterId must not be negative");
+        }
+        String emailDomain = filter.getEmailDomain() == null || filter.getEmailDomain().isBlank()
+            ? null : normalizeEmailDomain(filter.getEmailDomain());
+        long maxRows = filter.getMaxRows() == null ? Long.MAX_VALUE : filter.getMaxRows();
+        long cursor = filter.getAfterId() == null ? 0 : filter.getAfterId();
+        
+        // An explicit id list is walked in sorted windows so that no single IN list grows with the request
+        List<Long> requestedIds = filter.hasIds() ? new ArrayList<>(new TreeSet<>(filter.getIds()).tailSet(cursor, false)) : null;
+        int requestedOffset = 0;
+        
+        long matched = 0;
+        long affected = 0;
+        int chunks = 0;
+        boolean completed = false;
+        
+        while (matched < maxRows) {
+            int limit = (int) Math.min(bulkChunkSize, maxRows - matched);
+            List<Long> window = null;
+            if (requestedIds != null) {
+                if (requestedOffset >= requestedIds.size()) {
+                    completed = true;
+                    break;
+                }
+                window = requestedIds.subList(requestedOffset, Math.min(requestedOffset + limit, requestedIds.size()));
+                requestedOffset += window.size();
+            }
+            
+            List<Long> ids = userRepository.findIdsMatching(window, filter.getCreatedBefore(), emailDomain,
+                window == null ? cursor : 0, limit);
+            if (!ids.isEmpty()) {
+                affected += operation.applyAsInt(ids);
+                userDirectory.invalidateCommitted(ids);
+                matched += ids.size();
+                chunks++;
+            }
+            
+            if (window != null) {
+                cursor = window.get(window.size() - 1);
+            } else if (ids.isEmpty()) {
+                completed = true;
+                break;
+            } else {
+                cursor = ids.get(ids.size() - 1);
+                if (ids.size() < limit) {
+                    completed = true;
+                    break;
+                }
+            }
+        }
+        if (requestedIds != null && requestedOffset >= requestedIds.size()) {
+            completed = true;
+        }
+        
+        // Set-based changes bypass the incremental counters
+        if (affected > 0) {
+            userStatsRollup.rebuild();
+        }
+        
+        return new BulkUserResult(matched, affected, chunks, cursor, completed);
+    }
+    
+    // Bulk deletes must never match more than the named domain, so only plain hostnames are accepted
+    private static String normalizeEmailDomain(String emailDomain) {
+        String domain = emailDomain.trim().toLowerCase(Locale.ROOT);
+        if (domain.startsWith("@")) {
+            domain = domain.substring(1);
+        }
+        if (!EMAIL_DOMAIN.matcher(domain).matches()) {
+            throw new IllegalArgumentException("Invalid email domain: " + emailDomain);
+        }
+        return domain;
+    }
+    
+    // Entities read inside a caller's transaction are managed and may carry uncommitted
+    // changes, so they bypass the directory and must not be loaded on another thread
+    private boolean inCallerTransaction() {
+        return TransactionSynchronizationManager.isActualTransactionActive();
+    }
 }
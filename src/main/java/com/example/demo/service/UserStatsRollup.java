@@ -0,0 +1,251 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.User;
+import com.example.demo.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Signup and activity counters bucketed by hour and day of {@link User#getCreatedAt()}.
+ * Maintained incrementally by {@link UserService}, rebuilt from the database at startup
+ * and reconciled periodically to correct any drift.
+ */
+@Component
+public class UserStatsRollup {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserStatsRollup.class);
+
+    public enum Bucket {
+        HOUR, DAY
+    }
+
+    private final UserRepository userRepository;
+
+    private volatile Rollup rollup = new Rollup();
+
+    // Changes committed while a rebuild reads the database; replayed onto the rebuilt rollup before it is swapped in
+    private volatile Queue<Delta> journal;
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private final Object rebuildLock = new Object();
+
+    @Autowired
+    public UserStatsRollup(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @PostConstruct
+    public void initialize() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${user.stats.reconcile-interval-ms:300000}",
+               initialDelayString = "${user.stats.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        rebuild();
+    }
+
+    /**
+     * Recomputes all buckets with one grouped query and swaps them in atomically.
+     * Changes committed while the query runs are replayed onto the result, so none are lost.
+     */
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            // Started before the query, so every change the query might miss is journaled
+            journal = new ConcurrentLinkedQueue<>();
+            try {
+                Rollup rebuilt = new Rollup();
+                for (Object[] row : userRepository.countByCreatedHour()) {
+                    LocalDateTime hour = LocalDateTime.of(
+                        ((Number) row[0]).intValue(), ((Number) row[1]).intValue(), ((Number) row[2]).intValue(),
+                        ((Number) row[3]).intValue(), 0);
+                    boolean active = Boolean.TRUE.equals(row[4]);
+                    long count = ((Number) row[5]).longValue();
+                    rebuilt.add(hour, count, active ? count : 0);
+                }
+                swap(rebuilt);
+            } finally {
+                journal = null;
+            }
+        }
+        Rollup current = rollup;
+        logger.info("User stats rebuilt: {} users, {} active", current.totalSignups.sum(), current.totalActive.sum());
+    }
+
+    public void onCreated(User user) {
+        boolean active = Boolean.TRUE.equals(user.getActive());
+        afterCommit(() -> apply(new Delta(user.getCreatedAt(), 1, active ? 1 : 0)));
+    }
+
+    public void onActiveChanged(User user, boolean wasActive) {
+        boolean active = Boolean.TRUE.equals(user.getActive());
+        if (active != wasActive) {
+            afterCommit(() -> apply(new Delta(user.getCreatedAt(), 0, active ? 1 : -1)));
+        }
+    }
+
+    public void onDeleted(User user) {
+        boolean active = Boolean.TRUE.equals(user.getActive());
+        afterCommit(() -> apply(new Delta(user.getCreatedAt(), -1, active ? -1 : 0)));
+    }
+
+    // Increments run concurrently with each other; only the swap excludes them
+    private void apply(Delta delta) {
+        swapLock.readLock().lock();
+        try {
+            rollup.add(delta.createdAt, delta.signups, delta.active);
+            Queue<Delta> pending = journal;
+            if (pending != null) {
+                pending.add(delta);
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    private void swap(Rollup rebuilt) {
+        swapLock.writeLock().lock();
+        try {
+            for (Delta delta : journal) {
+                rebuilt.add(delta.createdAt, delta.signups, delta.active);
+            }
+            rollup = rebuilt;
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Buckets overlapping [from, to); either bound may be null
+     */
+    public Map<String, Object> query(Bucket bucket, LocalDateTime from, LocalDateTime to) {
+        Rollup current = rollup;
+        NavigableMap<?, Counts> range;
+        if (bucket == Bucket.DAY) {
+            range = subMap(current.byDay,
+                from == null ? null : from.toLocalDate(),
+                to == null ? null : to.toLocalDate().plusDays(to.toLocalTime().equals(LocalTime.MIDNIGHT) ? 0 : 1));
+        } else {
+            range = subMap(current.byHour,
+                from == null ? null : from.truncatedTo(ChronoUnit.HOURS),
+                to);
+        }
+
+        List<Map<String, Object>> buckets = new ArrayList<>(range.size());
+        long signups = 0;
+        long active = 0;
+        for (Map.Entry<?, Counts> entry : range.entrySet()) {
+            long bucketSignups = entry.getValue().signups.sum();
+            long bucketActive = entry.getValue().active.sum();
+            if (bucketSignups == 0) {
+                continue;
+            }
+            Map<String, Object> row = new HashMap<>();
+            row.put("start", entry.getKey());
+            row.put("signups", bucketSignups);
+            row.put("active", bucketActive);
+            row.put("inactive", bucketSignups - bucketActive);
+            buckets.add(row);
+            signups += bucketSignups;
+            active += bucketActive;
+        }
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("bucket", bucket.name().toLowerCase());
+        stats.put("from", from);
+        stats.put("to", to);
+        stats.put("signups", signups);
+        stats.put("active", active);
+        stats.put("inactive", signups - active);
+        stats.put("activeRatio", signups == 0 ? 0.0 : (double) active / signups);
+        stats.put("totalUsers", current.totalSignups.sum());
+        stats.put("totalActive", current.totalActive.sum());
+        stats.put("buckets", buckets);
+        return stats;
+    }
+
+    private static <K> NavigableMap<K, Counts> subMap(NavigableMap<K, Counts> map, K from, K to) {
+        NavigableMap<K, Counts> range = map;
+        if (from != null) {
+            range = range.tailMap(from, true);
+        }
+        if (to != null) {
+            range = range.headMap(to, false);
+        }
+        return range;
+    }
+
+    // Counters only reflect committed changes; outside a transaction they apply immediately
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static final class Delta {
+        private final LocalDateTime createdAt;
+        private final long signups;
+        private final long active;
+
+        private Delta(LocalDateTime createdAt, long signups, long active) {
+            this.createdAt = createdAt;
+            this.signups = signups;
+            this.active = active;
+        }
+    }
+
+    private static final class Counts {
+        private final LongAdder signups = new LongAdder();
+        private final LongAdder active = new LongAdder();
+    }
+
+    private static final class Rollup {
+        private final ConcurrentSkipListMap<LocalDateTime, Counts> byHour = new ConcurrentSkipListMap<>();
+        private final ConcurrentSkipListMap<LocalDate, Counts> byDay = new ConcurrentSkipListMap<>();
+        private final LongAdder totalSignups = new LongAdder();
+        private final LongAdder totalActive = new LongAdder();
+
+        void add(LocalDateTime createdAt, long signups, long active) {
+            if (createdAt == null) {
+                return;
+            }
+            add(byHour.computeIfAbsent(createdAt.truncatedTo(ChronoUnit.HOURS), key -> new Counts()), signups, active);
+            add(byDay.computeIfAbsent(createdAt.toLocalDate(), key -> new Counts()), signups, active);
+            totalSignups.add(signups);
+            totalActive.add(active);
+        }
+
+        private static void add(Counts counts, long signups, long active) {
+            counts.signups.add(signups);
+            counts.active.add(active);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.User;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Single validation stage for users, backed by the shared Validator bean: UserService validates
+ * every user it creates or updates, the import pipeline validates its chunks. JPA does not
+ * re-validate on persist or update, so every entry point validates exactly once.
+ */
+@Component
+public class UserValidator {
+
+    private final Validator validator;
+
+    @Autowired
+    public UserValidator(Validator validator) {
+        this.validator = validator;
+    }
+
+    /**
+     * Constraint messages for {@code user}, sorted; empty when it is valid
+     */
+    public List<String> validate(User user) {
+        return validator.validate(user).stream()
+            .map(ConstraintViolation::getMessage)
+            .sorted()
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Validates every element and returns the messages of each invalid element keyed by its index
+     */
+    public Map<Integer, List<String>> validateAll(List<User> users) {
+        return IntStream.range(0, users.size()).boxed()
+            .map(index -> Map.entry(index, validate(users.get(index))))
+            .filter(entry -> !entry.getValue().isEmpty())
+            .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+    }
+}